@@ -0,0 +1,36 @@
+package com.test.coupon.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "coupon.audit")
+public class AuditProperties {
+
+    public enum OverflowPolicy { DROP, BLOCK }
+
+    public enum Sink { DB, FILE }
+
+    private boolean enabled = true;
+
+    // Rounded up to a power of two
+    private int capacity = 8192;
+
+    private int batchSize = 256;
+
+    // How long the writer sleeps when the buffer runs dry
+    private long flushIntervalMs = 200;
+
+    // DROP discards the event when the buffer is full; BLOCK waits up to blockTimeoutMs, then drops
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    private long blockTimeoutMs = 5;
+
+    private Sink sink = Sink.DB;
+
+    // Append-only file used by the FILE sink
+    private String filePath = "coupon-audit.log";
+
+}
@@ -0,0 +1,184 @@
+package com.test.coupon.audit;
+
+import com.test.coupon.entity.AuditEvent;
+import com.test.coupon.repository.AuditEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records apply/evaluate events off the request path.
+ * Callers only pay for a lock-free enqueue; a background writer drains the buffer
+ * and persists events in batches to the database or an append-only file.
+ */
+@Component
+public class AuditPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPublisher.class);
+
+    private final AuditProperties properties;
+    private final AuditEventRepository auditEventRepository;
+    private final RingBuffer<AuditEvent> buffer;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastFlushLagMs;
+    private volatile long maxFlushLagMs;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    // Owned by the writer thread
+    private BufferedWriter fileWriter;
+
+    public AuditPublisher(AuditProperties properties, AuditEventRepository auditEventRepository) {
+        this.properties = properties;
+        this.auditEventRepository = auditEventRepository;
+        this.buffer = new RingBuffer<>(properties.getCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled())
+            return;
+
+        running = true;
+        writer = new Thread(this::drainLoop, "coupon-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+            if (writer.isAlive())
+                log.warn("Audit writer still flushing {} pending events at shutdown", buffer.size());
+        }
+    }
+
+
+    public void publish(String tenantId, String type, Long couponId, long cartFingerprint, BigDecimal discount) {
+        if (!running)
+            return;
+
+        AuditEvent event = new AuditEvent(null, tenantId, type, couponId, cartFingerprint, discount, Instant.now());
+
+        if (buffer.offer(event) || (properties.getOverflowPolicy() == AuditProperties.OverflowPolicy.BLOCK && offerWithTimeout(event))) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("pending", buffer.size());
+        stats.put("capacity", buffer.capacity());
+        stats.put("last_flush_lag_ms", lastFlushLagMs);
+        stats.put("max_flush_lag_ms", maxFlushLagMs);
+        return stats;
+    }
+
+
+    private boolean offerWithTimeout(AuditEvent event) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getBlockTimeoutMs());
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(10_000);
+            if (buffer.offer(event))
+                return true;
+        }
+        return false;
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+
+        while (running || buffer.size() > 0) {
+            int drained = buffer.drainTo(batch, properties.getBatchSize());
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+
+            // A partial batch means the buffer ran dry; wait for more events to accumulate
+            if (running && drained < properties.getBatchSize())
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs()));
+        }
+
+        // The file is only ever touched by this thread, so it is closed here rather than in stop()
+        closeFile();
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            if (properties.getSink() == AuditProperties.Sink.FILE) {
+                writeToFile(batch);
+            } else {
+                auditEventRepository.saveAll(batch);
+            }
+            written.addAndGet(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failed.addAndGet(batch.size());
+            log.warn("Failed to write {} audit events", batch.size(), e);
+        }
+
+        // Age of the oldest event in the batch when it reached the sink
+        long lag = System.currentTimeMillis() - batch.get(0).getCreatedAt().toEpochMilli();
+        lastFlushLagMs = lag;
+        maxFlushLagMs = Math.max(maxFlushLagMs, lag);
+    }
+
+    private void writeToFile(List<AuditEvent> batch) throws IOException {
+        if (fileWriter == null) {
+            fileWriter = Files.newBufferedWriter(Path.of(properties.getFilePath()), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        for (AuditEvent event : batch) {
+            fileWriter.write(event.getCreatedAt() + "," + event.getTenantId() + "," + event.getType() + "," + event.getCouponId() + ","
+                    + Long.toHexString(event.getCartFingerprint()) + "," + event.getDiscount());
+            fileWriter.newLine();
+        }
+        fileWriter.flush();
+    }
+
+    private void closeFile() {
+        if (fileWriter == null)
+            return;
+
+        try {
+            fileWriter.close();
+        } catch (IOException e) {
+            log.warn("Failed to close audit file", e);
+        }
+    }
+
+}
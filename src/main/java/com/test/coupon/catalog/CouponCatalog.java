@@ -0,0 +1,275 @@
+package com.test.coupon.catalog;
+
+import com.test.coupon.entity.Coupon;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of the coupon catalog.
+ * Every coupon gets a dense ordinal, and its eligibility predicates are compiled into
+ * per-attribute BitSet postings over those ordinals, so the candidate set for a customer
+ * is a few bitmap operations instead of a per-coupon check.
+ * Exclusivity groups and explicit conflicts are kept as a conflict graph of adjacency
+ * bitsets over the same ordinals, maintained incrementally on every write.
+ */
+public class CouponCatalog {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinalsById = new HashMap<>();
+    private final List<Coupon> couponsByOrdinal = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet freeOrdinals = new BitSet();
+
+    // attribute -> coupons that restrict on that attribute
+    private final Map<String, BitSet> restricted = new HashMap<>();
+
+    // attribute -> value -> coupons accepting that value
+    private final Map<String, Map<String, BitSet>> postings = new HashMap<>();
+
+    // ordinal -> ordinals of the coupons it conflicts with
+    private final List<BitSet> conflicts = new ArrayList<>();
+
+    // exclusivity group -> member coupons
+    private final Map<String, BitSet> groupMembers = new HashMap<>();
+
+    // coupon ID -> coupons declaring a conflict with it (the ID may not be in the catalog yet)
+    private final Map<Long, BitSet> conflictDeclarers = new HashMap<>();
+
+
+    /**
+     * Adds the coupon, or replaces the previous version with the same ID.
+     */
+    public void put(Coupon coupon) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(coupon.getId());
+
+            int ordinal = freeOrdinals.isEmpty() ? couponsByOrdinal.size() : freeOrdinals.nextSetBit(0);
+            if (ordinal == couponsByOrdinal.size()) {
+                couponsByOrdinal.add(coupon);
+            } else {
+                freeOrdinals.clear(ordinal);
+                couponsByOrdinal.set(ordinal, coupon);
+            }
+            ordinalsById.put(coupon.getId(), ordinal);
+            live.set(ordinal);
+
+            indexEligibility(coupon, ordinal);
+            indexConflicts(coupon, ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the coupons whose eligibility predicates all accept the given customer attributes.
+     * Coupons without predicates are eligible for everyone.
+     */
+    public List<Coupon> eligibleCoupons(Map<String, String> customer) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = eligible(customer);
+
+            List<Coupon> result = new ArrayList<>(candidates.cardinality());
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                result.add(couponsByOrdinal.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEligible(Long id, Map<String, String> customer) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalsById.get(id);
+            return ordinal != null && eligible(customer).get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Picks a mutually compatible subset of the given coupons.
+     * IDs are taken in order of preference; each coupon is kept unless it conflicts with one
+     * already kept, which is a single bit test plus an OR of its adjacency set.
+     */
+    public List<Long> selectCompatible(List<Long> rankedIds) {
+        lock.readLock().lock();
+        try {
+            BitSet blocked = new BitSet();
+            List<Long> selected = new ArrayList<>();
+
+            for (Long id : rankedIds) {
+                Integer ordinal = ordinalsById.get(id);
+                if (ordinal == null || blocked.get(ordinal))
+                    continue;
+
+                selected.add(id);
+                blocked.or(conflicts.get(ordinal));
+            }
+            return selected;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    // Caller must hold the read lock.
+    private BitSet eligible(Map<String, String> customer) {
+        BitSet candidates = (BitSet) live.clone();
+        if (restricted.isEmpty())
+            return candidates;
+
+        Map<String, String> attributes = new HashMap<>();
+        if (customer != null) {
+            customer.forEach((key, value) -> {
+                if (key != null && value != null)
+                    attributes.put(normalize(key), value);
+            });
+        }
+
+        for (Map.Entry<String, BitSet> entry : restricted.entrySet()) {
+            String value = attributes.get(entry.getKey());
+
+            // Drop the coupons restricting this attribute, except those accepting the customer's value
+            BitSet excluded = (BitSet) entry.getValue().clone();
+            if (value != null) {
+                BitSet accepted = postings.get(entry.getKey()).get(normalize(value));
+                if (accepted != null)
+                    excluded.andNot(accepted);
+            }
+            candidates.andNot(excluded);
+        }
+
+        return candidates;
+    }
+
+    // Caller must hold the write lock.
+    private void indexEligibility(Coupon coupon, int ordinal) {
+        if (coupon.getEligibility() == null)
+            return;
+
+        for (Map.Entry<String, List<String>> predicate : coupon.getEligibility().entrySet()) {
+            if (predicate.getValue() == null || predicate.getValue().isEmpty())
+                continue;
+
+            String attribute = normalize(predicate.getKey());
+            restricted.computeIfAbsent(attribute, k -> new BitSet()).set(ordinal);
+
+            Map<String, BitSet> valuePostings = postings.computeIfAbsent(attribute, k -> new HashMap<>());
+            for (String value : predicate.getValue()) {
+                if (value != null)
+                    valuePostings.computeIfAbsent(normalize(value), k -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void indexConflicts(Coupon coupon, int ordinal) {
+        BitSet adjacent = new BitSet();
+
+        if (coupon.getExclusivityGroups() != null) {
+            for (String group : coupon.getExclusivityGroups()) {
+                if (group == null)
+                    continue;
+
+                BitSet members = groupMembers.computeIfAbsent(normalize(group), k -> new BitSet());
+                adjacent.or(members);
+                members.set(ordinal);
+            }
+        }
+
+        if (coupon.getConflictsWith() != null) {
+            for (Long otherId : coupon.getConflictsWith()) {
+                if (otherId == null)
+                    continue;
+
+                Integer other = ordinalsById.get(otherId);
+                if (other != null)
+                    adjacent.set(other);
+                conflictDeclarers.computeIfAbsent(otherId, k -> new BitSet()).set(ordinal);
+            }
+        }
+
+        // Coupons that declared a conflict with this one before it was (re)added
+        BitSet declarers = conflictDeclarers.get(coupon.getId());
+        if (declarers != null)
+            adjacent.or(declarers);
+
+        adjacent.clear(ordinal);
+
+        while (conflicts.size() <= ordinal) {
+            conflicts.add(new BitSet());
+        }
+        conflicts.set(ordinal, adjacent);
+        for (int i = adjacent.nextSetBit(0); i >= 0; i = adjacent.nextSetBit(i + 1)) {
+            conflicts.get(i).set(ordinal);
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void removeInternal(Long id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal == null)
+            return;
+
+        live.clear(ordinal);
+        freeOrdinals.set(ordinal);
+        couponsByOrdinal.set(ordinal, null);
+
+        for (BitSet bits : restricted.values()) {
+            bits.clear(ordinal);
+        }
+        for (Map<String, BitSet> valuePostings : postings.values()) {
+            for (BitSet bits : valuePostings.values()) {
+                bits.clear(ordinal);
+            }
+        }
+
+        BitSet adjacent = conflicts.get(ordinal);
+        for (int i = adjacent.nextSetBit(0); i >= 0; i = adjacent.nextSetBit(i + 1)) {
+            conflicts.get(i).clear(ordinal);
+        }
+        conflicts.set(ordinal, new BitSet());
+
+        for (BitSet members : groupMembers.values()) {
+            members.clear(ordinal);
+        }
+        for (BitSet bits : conflictDeclarers.values()) {
+            bits.clear(ordinal);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.test.coupon.controller;
+
+import com.test.coupon.audit.AuditPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping(value = "/monkcommerce")
+public class AuditController {
+
+    private final AuditPublisher auditPublisher;
+
+    public AuditController(AuditPublisher auditPublisher) {
+        this.auditPublisher = auditPublisher;
+    }
+
+
+    /**
+     * Counters of the asynchronous audit pipeline: published, dropped, written, pending and flush lag.
+     */
+    @GetMapping("/audit/stats")
+    public ResponseEntity<Map<String, Object>> getAuditStats() {
+        return ResponseEntity.ok(auditPublisher.getStats());
+    }
+
+}
@@ -3,9 +3,18 @@ package com.test.coupon.controller;
 import com.test.coupon.dto.Cart;
 import com.test.coupon.entity.Coupon;
 import com.test.coupon.exception.CouponException;
+import com.test.coupon.exception.InvalidCartException;
 import com.test.coupon.service.CouponService;
+import com.test.coupon.simulation.CampaignSimulator;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -13,10 +22,15 @@ import java.util.Map;
 @RequestMapping(value = "/monkcommerce")
 public class CouponController {
 
+    // Identifies the merchant; every operation only sees that merchant's coupons
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
     private final CouponService couponService;
+    private final CampaignSimulator campaignSimulator;
 
-    public CouponController(CouponService couponService) {
+    public CouponController(CouponService couponService, CampaignSimulator campaignSimulator) {
         this.couponService = couponService;
+        this.campaignSimulator = campaignSimulator;
     }
 
 
@@ -25,8 +39,8 @@ public class CouponController {
      * Requirement: POST /coupons
      */
     @PostMapping("/coupons")
-    public ResponseEntity<Coupon> createCoupon(@RequestBody Coupon coupon) {
-        Coupon created = couponService.createCoupon(coupon);
+    public ResponseEntity<Coupon> createCoupon(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId, @RequestBody Coupon coupon) {
+        Coupon created = couponService.createCoupon(tenantId, coupon);
         return ResponseEntity.ok(created);
     }
 
@@ -35,8 +49,8 @@ public class CouponController {
      * Requirement: GET /coupons
      */
     @GetMapping("/coupons")
-    public ResponseEntity<List<Coupon>> getAllCoupons() {
-        return ResponseEntity.ok(couponService.getAllCoupons());
+    public ResponseEntity<List<Coupon>> getAllCoupons(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId) {
+        return ResponseEntity.ok(couponService.getAllCoupons(tenantId));
     }
 
     /**
@@ -44,8 +58,8 @@ public class CouponController {
      * Requirement: GET /coupons/{id}
      */
     @GetMapping("/coupons/{id}")
-    public ResponseEntity<Coupon> getCouponById(@PathVariable Long id) throws CouponException {
-        return ResponseEntity.ok(couponService.getCouponById(id));
+    public ResponseEntity<Coupon> getCouponById(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId, @PathVariable Long id) throws CouponException {
+        return ResponseEntity.ok(couponService.getCouponById(tenantId, id));
     }
 
     /**
@@ -53,8 +67,9 @@ public class CouponController {
      * Requirement: PUT /coupons/{id}
      */
     @PutMapping("/coupons/{id}")
-    public ResponseEntity<Coupon> updateCoupon(@PathVariable Long id, @RequestBody Coupon coupon) throws CouponException {
-        return ResponseEntity.ok(couponService.updateCoupon(id, coupon));
+    public ResponseEntity<Coupon> updateCoupon(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId, @PathVariable Long id,
+                                               @RequestBody Coupon coupon) throws CouponException {
+        return ResponseEntity.ok(couponService.updateCoupon(tenantId, id, coupon));
     }
 
     /**
@@ -62,38 +77,89 @@ public class CouponController {
      * Requirement: DELETE /coupons/{id}
      */
     @DeleteMapping("/coupons/{id}")
-    public ResponseEntity<Coupon> deleteCoupon(@PathVariable Long id) throws CouponException {
-        return ResponseEntity.ok(couponService.deleteCoupon(id));
+    public ResponseEntity<Coupon> deleteCoupon(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId, @PathVariable Long id) throws CouponException {
+        return ResponseEntity.ok(couponService.deleteCoupon(tenantId, id));
     }
 
 
     /**
      * Fetch all applicable coupons for a given cart and calculate potential discounts.
      * Requirement: POST /applicable-coupons
+     * Accepts and returns either JSON (default) or CBOR.
      */
-    @PostMapping("/applicable-coupons")
-    public ResponseEntity<Map<String, Object>> getApplicableCoupons(@RequestBody CartWrapper cartWrapper) throws CouponException {
+    @PostMapping(value = "/applicable-coupons",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Object>> getApplicableCoupons(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId,
+                                                                    @RequestBody CartWrapper cartWrapper) throws CouponException {
 
         Cart cart = cartWrapper.getCart();
-        Map<String, Object> response = couponService.getApplicableCoupons(cart);
+        Map<String, Object> response = couponService.getApplicableCoupons(tenantId, cart);
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Fetch the applicable coupons that can be combined, honouring exclusivity groups, conflicts and priority.
+     * Accepts and returns either JSON (default) or CBOR.
+     */
+    @PostMapping(value = "/compatible-coupons",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Object>> getCompatibleCoupons(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId,
+                                                                    @RequestBody CartWrapper cartWrapper) throws CouponException {
+        return ResponseEntity.ok(couponService.getCompatibleCoupons(tenantId, cartWrapper.getCart()));
+    }
+
     /**
      * Apply a specific coupon to the cart and return the updated cart with discounted prices.
      * Requirement: POST /apply-coupon/{id}
+     * Accepts and returns either JSON (default) or CBOR.
      */
-    @PostMapping("/apply-coupon/{id}")
-    public ResponseEntity<Map<String, Object>> applyCoupon(@PathVariable Long id, @RequestBody CartWrapper cartWrapper) throws CouponException {
+    @PostMapping(value = "/apply-coupon/{id}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<Map<String, Object>> applyCoupon(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId, @PathVariable Long id,
+                                                           @RequestBody CartWrapper cartWrapper) throws CouponException {
         Cart cart = cartWrapper.getCart();
-        Cart updatedCart = couponService.applyCoupon(id, cart);
+        Cart updatedCart = couponService.applyCoupon(tenantId, id, cart);
 
         // Wrap response to match requirement: {"updated_cart": {...}}
         return ResponseEntity.ok(Map.of("updated_cart", updatedCart));
     }
 
 
+    /**
+     * Latency and evaluation cache metrics of the requesting tenant's partition.
+     */
+    @GetMapping("/tenant/stats")
+    public ResponseEntity<Map<String, Object>> getTenantStats(@RequestHeader(value = TENANT_HEADER, defaultValue = Coupon.DEFAULT_TENANT) String tenantId) {
+        return ResponseEntity.ok(couponService.getTenantStats(tenantId));
+    }
+
+
+    /**
+     * Dry-run a proposed coupon catalog against recorded carts without persisting it.
+     * NDJSON body: the first line is the proposed catalog as a JSON array of coupons, every following line is a cart.
+     * The body is streamed, never buffered, and capped at coupon.simulate.max-upload-bytes.
+     */
+    @PostMapping(value = "/simulate", consumes = "application/x-ndjson")
+    public ResponseEntity<Map<String, Object>> simulate(HttpServletRequest request) throws CouponException, IOException {
+        try (InputStream in = request.getInputStream()) {
+            return ResponseEntity.ok(campaignSimulator.simulateUpload(in, request.getContentLengthLong()));
+        }
+    }
+
+
+    /**
+     * Invalid carts are the caller's mistake, so the reason is returned; other errors keep Boot's default body.
+     */
+    @ExceptionHandler(InvalidCartException.class)
+    public ProblemDetail handleInvalidCart(InvalidCartException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+
     // --- Helper DTO for Request Bodies ---
 
     // Needed because the request JSON is wrapped in a "cart" object
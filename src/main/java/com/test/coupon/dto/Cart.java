@@ -1,10 +1,14 @@
 package com.test.coupon.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class Cart {
@@ -20,4 +24,13 @@ public class Cart {
     @JsonProperty("final_price")
     private BigDecimal finalPrice;
 
+    // Customer attributes used for coupon eligibility, e.g. {"segment": "gold", "channel": "web", "region": "IN"}
+    private Map<String, String> customer;
+
+    // Set by CartNormalizer; strategies rely on it being present
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private NormalizedCart normalized;
+
 }
@@ -0,0 +1,97 @@
+package com.test.coupon.dto;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Canonical, read-only view of a validated cart, built once by CartNormalizer.
+ * Lines are unique per product and sorted by product ID, in the same order as Cart.items,
+ * so strategies can look products up by binary search instead of scanning the item list.
+ */
+public final class NormalizedCart {
+
+    private final long[] productIds;
+    private final int[] quantities;
+    private final BigDecimal[] prices;
+    private final BigDecimal[] lineTotals;
+    private final BigDecimal total;
+    private final long fingerprint;
+
+    public NormalizedCart(long[] productIds, int[] quantities, BigDecimal[] prices, long fingerprint) {
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.prices = prices;
+        this.fingerprint = fingerprint;
+
+        this.lineTotals = new BigDecimal[productIds.length];
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < productIds.length; i++) {
+            lineTotals[i] = prices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            sum = sum.add(lineTotals[i]);
+        }
+        this.total = sum;
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    /**
+     * Returns the line index of the product, or a negative value if it is not in the cart.
+     */
+    public int indexOf(Long productId) {
+        if (productId == null)
+            return -1;
+        return Arrays.binarySearch(productIds, productId);
+    }
+
+    public int quantityOf(Long productId) {
+        int index = indexOf(productId);
+        return index >= 0 ? quantities[index] : 0;
+    }
+
+    public long productIdAt(int index) {
+        return productIds[index];
+    }
+
+    public int quantityAt(int index) {
+        return quantities[index];
+    }
+
+    public BigDecimal priceAt(int index) {
+        return prices[index];
+    }
+
+    // Price * quantity
+    public BigDecimal lineTotalAt(int index) {
+        return lineTotals[index];
+    }
+
+    // Pre-discount total of all lines
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    // 64-bit hash of the canonical lines, identifies the cart in audit events
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * True if both carts have exactly the same lines. Prices are compared by value, so 10 and 10.00 match.
+     * Unlike the fingerprint this can't collide, which makes it safe for cache lookups.
+     */
+    public boolean sameLines(NormalizedCart other) {
+        if (fingerprint != other.fingerprint
+                || !Arrays.equals(productIds, other.productIds)
+                || !Arrays.equals(quantities, other.quantities))
+            return false;
+
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i].compareTo(other.prices[i]) != 0)
+                return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.test.coupon.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private String tenantId;
+
+    private String type; // "apply", "evaluate"
+
+    private Long couponId;
+
+    private long cartFingerprint;
+
+    private BigDecimal discount;
+
+    private Instant createdAt;
+
+}
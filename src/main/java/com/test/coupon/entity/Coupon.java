@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes; // Import is already present
 
+import java.util.List;
 import java.util.Map;
 
 
@@ -16,6 +17,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class Coupon {
 
+    public static final String DEFAULT_TENANT = "default";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
@@ -27,4 +30,23 @@ public class Coupon {
 
     private boolean isActive = true;
 
+    // Merchant owning the coupon; set from the request's tenant header
+    private String tenantId = DEFAULT_TENANT;
+
+    // Optional targeting, e.g. {"segment": ["gold"], "channel": ["web", "app"], "region": ["IN"]}
+    // An attribute that is absent (or empty) places no restriction on the customer.
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, List<String>> eligibility;
+
+    // Coupons sharing an exclusivity group can never be combined
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<String> exclusivityGroups;
+
+    // IDs of coupons this one can't be combined with (the conflict is symmetric)
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<Long> conflictsWith;
+
+    // Higher priority wins when picking between conflicting coupons
+    private int priority;
+
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.test.coupon.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCartException extends CouponException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCartException(String message) {
+        super(message);
+    }
+
+}
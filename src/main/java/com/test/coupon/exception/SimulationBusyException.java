@@ -0,0 +1,15 @@
+package com.test.coupon.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SimulationBusyException extends CouponException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SimulationBusyException() {
+        super("Another simulation is already running");
+    }
+
+}
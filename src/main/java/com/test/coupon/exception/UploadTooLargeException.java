@@ -0,0 +1,19 @@
+package com.test.coupon.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class UploadTooLargeException extends CouponException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UploadTooLargeException(long limit) {
+        super("Upload exceeds the limit of " + limit + " bytes");
+    }
+
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+
+}
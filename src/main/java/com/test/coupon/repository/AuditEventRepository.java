@@ -0,0 +1,8 @@
+package com.test.coupon.repository;
+
+import com.test.coupon.entity.AuditEvent;
+import org.springframework.data.repository.CrudRepository;
+
+public interface AuditEventRepository extends CrudRepository<AuditEvent, Long> {
+
+}
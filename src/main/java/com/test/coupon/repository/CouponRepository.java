@@ -1,6 +1,7 @@
 package com.test.coupon.repository;
 
 import com.test.coupon.entity.Coupon;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
@@ -9,4 +10,9 @@ public interface CouponRepository extends CrudRepository<Coupon, Long> {
 
     public List<Coupon> findAll();
 
+    public List<Coupon> findByTenantId(String tenantId);
+
+    @Query("select distinct c.tenantId from Coupon c")
+    public List<String> findTenantIds();
+
 }
@@ -0,0 +1,107 @@
+package com.test.coupon.service;
+
+import com.test.coupon.dto.Cart;
+import com.test.coupon.dto.CartItem;
+import com.test.coupon.dto.NormalizedCart;
+import com.test.coupon.exception.InvalidCartException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Validates and canonicalizes a cart before any CouponStrategy sees it.
+ * Duplicate lines for the same product are merged, items are sorted by product ID,
+ * and the primitive-backed NormalizedCart view is attached to the cart.
+ */
+@Component
+public class CartNormalizer {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public Cart normalize(Cart cart) throws InvalidCartException {
+        if (cart == null || cart.getItems() == null)
+            throw new InvalidCartException("Cart must contain an items list");
+
+        TreeMap<Long, CartItem> lines = new TreeMap<>();
+
+        for (int i = 0; i < cart.getItems().size(); i++) {
+            CartItem item = cart.getItems().get(i);
+            validate(item, i);
+
+            CartItem existing = lines.get(item.getProductId());
+            if (existing == null) {
+                lines.put(item.getProductId(), item);
+                continue;
+            }
+
+            // Same product on several lines: merge them if they agree on the price
+            if (existing.getPrice().compareTo(item.getPrice()) != 0)
+                throw new InvalidCartException("Product " + item.getProductId() + " appears with different prices: "
+                        + existing.getPrice() + " and " + item.getPrice());
+
+            try {
+                existing.setQuantity(Math.addExact(existing.getQuantity(), item.getQuantity()));
+            } catch (ArithmeticException e) {
+                throw new InvalidCartException("Quantity for product " + item.getProductId() + " is too large");
+            }
+        }
+
+        int size = lines.size();
+        long[] productIds = new long[size];
+        int[] quantities = new int[size];
+        BigDecimal[] prices = new BigDecimal[size];
+        long fingerprint = FNV_OFFSET_BASIS;
+
+        int index = 0;
+        for (Map.Entry<Long, CartItem> line : lines.entrySet()) {
+            CartItem item = line.getValue();
+            productIds[index] = item.getProductId();
+            quantities[index] = item.getQuantity();
+            prices[index] = item.getPrice();
+
+            fingerprint = mix(fingerprint, item.getProductId());
+            fingerprint = mix(fingerprint, item.getQuantity());
+            fingerprint = mix(fingerprint, item.getPrice().stripTrailingZeros().hashCode());
+            index++;
+        }
+
+        cart.setItems(new ArrayList<>(lines.values()));
+        cart.setNormalized(new NormalizedCart(productIds, quantities, prices, fingerprint));
+        return cart;
+    }
+
+
+    private void validate(CartItem item, int position) throws InvalidCartException {
+        if (item == null)
+            throw new InvalidCartException("Cart item #" + position + " is empty");
+
+        if (item.getProductId() == null)
+            throw new InvalidCartException("Cart item #" + position + " is missing product_id");
+
+        if (item.getQuantity() <= 0)
+            throw new InvalidCartException("Cart item #" + position + " (product " + item.getProductId()
+                    + ") must have a positive quantity");
+
+        if (item.getPrice() == null)
+            throw new InvalidCartException("Cart item #" + position + " (product " + item.getProductId()
+                    + ") is missing a price");
+
+        if (item.getPrice().signum() < 0)
+            throw new InvalidCartException("Cart item #" + position + " (product " + item.getProductId()
+                    + ") has a negative price");
+    }
+
+    // 64-bit FNV-1a over the bytes of the value
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
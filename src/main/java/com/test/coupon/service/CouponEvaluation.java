@@ -0,0 +1,11 @@
+package com.test.coupon.service;
+
+import com.test.coupon.entity.Coupon;
+
+import java.math.BigDecimal;
+
+/**
+ * An applicable coupon and the discount it would give a particular cart.
+ */
+record CouponEvaluation(Coupon coupon, BigDecimal discount) {
+}
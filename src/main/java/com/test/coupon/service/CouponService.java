@@ -9,21 +9,28 @@ import java.util.Map;
 
 public interface CouponService {
 
+    // Every operation is scoped to a tenant and only sees that tenant's coupons
+
     // CRUD Operations
-    Coupon createCoupon(Coupon coupon);
+    Coupon createCoupon(String tenantId, Coupon coupon);
 
-    List<Coupon> getAllCoupons();
+    List<Coupon> getAllCoupons(String tenantId);
 
-    Coupon getCouponById(Long id) throws CouponException;
+    Coupon getCouponById(String tenantId, Long id) throws CouponException;
 
-    Coupon updateCoupon(Long id, Coupon coupon) throws CouponException;
+    Coupon updateCoupon(String tenantId, Long id, Coupon coupon) throws CouponException;
 
-    Coupon deleteCoupon(Long id) throws CouponException;
+    Coupon deleteCoupon(String tenantId, Long id) throws CouponException;
 
 
     // Logic Operations
-    Map<String, Object> getApplicableCoupons(Cart cart) throws CouponException;
+    Map<String, Object> getApplicableCoupons(String tenantId, Cart cart) throws CouponException;
+
+    Map<String, Object> getCompatibleCoupons(String tenantId, Cart cart) throws CouponException;
+
+    Cart applyCoupon(String tenantId, Long id, Cart cart) throws CouponException;
 
-    Cart applyCoupon(Long id, Cart cart) throws CouponException;
+    // Latency and cache metrics of the tenant's partition; never creates one
+    Map<String, Object> getTenantStats(String tenantId);
 
 }
\ No newline at end of file
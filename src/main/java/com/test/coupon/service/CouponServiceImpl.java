@@ -1,5 +1,6 @@
 package com.test.coupon.service;
 
+import com.test.coupon.audit.AuditPublisher;
 import com.test.coupon.dto.Cart;
 import com.test.coupon.entity.Coupon;
 import com.test.coupon.exception.CouponException;
@@ -7,9 +8,14 @@ import com.test.coupon.repository.CouponRepository;
 import com.test.coupon.util.CouponStrategy;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,51 +26,74 @@ public class CouponServiceImpl implements CouponService {
 
     private final CouponRepository couponRepository;
     private final List<CouponStrategy> strategies;
+    private final AuditPublisher auditPublisher;
+    private final CartNormalizer cartNormalizer;
 
-    public CouponServiceImpl(CouponRepository repo, List<CouponStrategy> strategies) {
+    // Catalogs, evaluation caches and metrics, one isolated partition per tenant
+    private final TenantPartitions partitions;
+
+    public CouponServiceImpl(CouponRepository repo, List<CouponStrategy> strategies, AuditPublisher auditPublisher,
+                             CartNormalizer cartNormalizer, TenantPartitions partitions) {
         this.couponRepository = repo;
         this.strategies = strategies;
+        this.auditPublisher = auditPublisher;
+        this.cartNormalizer = cartNormalizer;
+        this.partitions = partitions;
     }
 
 
     @Override
-    public Coupon createCoupon(Coupon coupon) {
-        return couponRepository.save(coupon);
+    public Coupon createCoupon(String tenantId, Coupon coupon) {
+        // IDs are always generated; a client-supplied one would make save() overwrite that coupon
+        coupon.setId(null);
+        coupon.setTenantId(tenantId);
+        Coupon saved = couponRepository.save(coupon);
+        afterCommit(() -> partitions.put(tenantId, saved));
+        return saved;
     }
 
     @Override
-    public List<Coupon> getAllCoupons() {
-        return couponRepository.findAll();
+    public List<Coupon> getAllCoupons(String tenantId) {
+        return couponRepository.findByTenantId(tenantId);
     }
 
     @Override
-    public Coupon getCouponById(Long id) throws CouponException {
+    public Coupon getCouponById(String tenantId, Long id) throws CouponException {
+        // Coupons of other tenants are reported as missing
         return couponRepository.findById(id)
+                .filter(coupon -> tenantId.equals(coupon.getTenantId()))
                 .orElseThrow(() -> new CouponException("Coupon not found with ID: " + id));
     }
 
     @Override
-    public Coupon updateCoupon(Long id, Coupon coupon) throws CouponException {
+    public Coupon updateCoupon(String tenantId, Long id, Coupon coupon) throws CouponException {
 
         // Check if coupon exists before updating
-        Coupon existingCoupon = getCouponById(id);
+        Coupon existingCoupon = getCouponById(tenantId, id);
 
         // Update fields
         existingCoupon.setType(coupon.getType());
         existingCoupon.setDetails(coupon.getDetails());
         existingCoupon.setActive(coupon.isActive());
+        existingCoupon.setEligibility(coupon.getEligibility());
+        existingCoupon.setExclusivityGroups(coupon.getExclusivityGroups());
+        existingCoupon.setConflictsWith(coupon.getConflictsWith());
+        existingCoupon.setPriority(coupon.getPriority());
 
-        return couponRepository.save(existingCoupon);
+        Coupon saved = couponRepository.save(existingCoupon);
+        afterCommit(() -> partitions.put(tenantId, saved));
+        return saved;
     }
 
     @Override
-    public Coupon deleteCoupon(Long id) throws CouponException {
+    public Coupon deleteCoupon(String tenantId, Long id) throws CouponException {
 
         // Check if coupon exists before deleting
-        Coupon couponToDelete = getCouponById(id);
+        Coupon couponToDelete = getCouponById(tenantId, id);
 
         // Delete the coupon
         couponRepository.deleteById(id);
+        afterCommit(() -> partitions.remove(tenantId, id));
 
         return couponToDelete;
     }
@@ -72,51 +101,162 @@ public class CouponServiceImpl implements CouponService {
 
     /**
      * Finds and applies a specific coupon to the cart.
+     * Like the other cart operations, the cart is normalized first so strategies only ever see clean input.
      */
     @Override
-    public Cart applyCoupon(Long id, Cart cart) throws CouponException {
-        Coupon coupon = getCouponById(id);
-
-        // Find the matching strategy
-        CouponStrategy strategy = strategies.stream()
-                .filter(s -> s.supports(coupon.getType()))
-                .findFirst()
-                .orElseThrow(() -> new CouponException("Unknown coupon type: " + coupon.getType()));
-
-        // Check if applicable and apply
-        if (strategy.isApplicable(cart, coupon.getDetails())) {
-            return strategy.apply(cart, coupon.getDetails());
-        }
+    public Cart applyCoupon(String tenantId, Long id, Cart cart) throws CouponException {
+        long start = System.nanoTime();
+        TenantPartition partition = partitions.get(tenantId);
+
+        try {
+            cartNormalizer.normalize(cart);
+            Coupon coupon = getCouponById(tenantId, id);
+
+            // Find the matching strategy
+            CouponStrategy strategy = strategies.stream()
+                    .filter(s -> s.supports(coupon.getType()))
+                    .findFirst()
+                    .orElseThrow(() -> new CouponException("Unknown coupon type: " + coupon.getType()));
+
+            long fingerprint = cart.getNormalized().getFingerprint();
+
+            // Check if eligible for this customer, applicable, and apply
+            if (partition.catalog().isEligible(id, cart.getCustomer()) && strategy.isApplicable(cart, coupon.getDetails())) {
+                Cart updatedCart = strategy.apply(cart, coupon.getDetails());
+                auditPublisher.publish(tenantId, "apply", id, fingerprint, updatedCart.getTotalDiscount());
+                return updatedCart;
+            }
 
-        // If not applicable, return the cart unmodified
-        return cart;
+            // If not applicable, return the cart unmodified
+            auditPublisher.publish(tenantId, "apply", id, fingerprint, BigDecimal.ZERO);
+            return cart;
+        } finally {
+            partition.recordLatency(System.nanoTime() - start);
+        }
     }
 
     /**
      * Calculates potential discounts for all applicable coupons.
+     * Only coupons whose eligibility predicates match the cart's customer reach the strategies.
      */
     @Override
-    public Map<String, Object> getApplicableCoupons(Cart cart) {
-        List<Coupon> allCoupons = couponRepository.findAll();
-        List<Object> applicableList = new ArrayList<>();
+    public Map<String, Object> getApplicableCoupons(String tenantId, Cart cart) throws CouponException {
+        long start = System.nanoTime();
+        TenantPartition partition = partitions.get(tenantId);
 
-        for (Coupon coupon : allCoupons) {
-            // Find the matching strategy
-            CouponStrategy strategy = strategies.stream()
-                    .filter(s -> s.supports(coupon.getType()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Unknown coupon type"));
-
-            if (strategy.isApplicable(cart, coupon.getDetails())) {
-                BigDecimal discount = strategy.calculateDiscount(cart, coupon.getDetails());
-                applicableList.add(Map.of(
-                        "coupon_id", coupon.getId(),
-                        "type", coupon.getType(),
-                        "discount", discount
-                ));
+        try {
+            cartNormalizer.normalize(cart);
+            List<Object> applicableList = new ArrayList<>();
+
+            for (CouponEvaluation evaluation : evaluate(tenantId, partition, cart)) {
+                applicableList.add(toResponse(evaluation));
+            }
+
+            return Map.of("applicable_coupons", applicableList);
+        } finally {
+            partition.recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Picks the applicable coupons that can be combined with each other.
+     * Coupons are ranked by priority, then by discount, and the conflict graph keeps the best compatible set.
+     */
+    @Override
+    public Map<String, Object> getCompatibleCoupons(String tenantId, Cart cart) throws CouponException {
+        long start = System.nanoTime();
+        TenantPartition partition = partitions.get(tenantId);
+
+        try {
+            cartNormalizer.normalize(cart);
+            Map<Long, CouponEvaluation> applicable = new LinkedHashMap<>();
+            for (CouponEvaluation evaluation : evaluate(tenantId, partition, cart)) {
+                applicable.put(evaluation.coupon().getId(), evaluation);
+            }
+
+            List<Long> rankedIds = applicable.values().stream()
+                    .sorted(Comparator.comparingInt((CouponEvaluation e) -> e.coupon().getPriority())
+                            .thenComparing(CouponEvaluation::discount)
+                            .reversed())
+                    .map(e -> e.coupon().getId())
+                    .toList();
+
+            List<Object> compatibleList = new ArrayList<>();
+            for (Long id : partition.catalog().selectCompatible(rankedIds)) {
+                compatibleList.add(toResponse(applicable.get(id)));
             }
+
+            return Map.of("compatible_coupons", compatibleList);
+        } finally {
+            partition.recordLatency(System.nanoTime() - start);
         }
+    }
+
+    @Override
+    public Map<String, Object> getTenantStats(String tenantId) {
+        return partitions.stats(tenantId);
+    }
+
+
+    /**
+     * Evaluates the tenant's eligible coupons against the cart, reusing the tenant's cached result for
+     * an identical cart and customer until its catalog changes.
+     */
+    private List<CouponEvaluation> evaluate(String tenantId, TenantPartition partition, Cart cart) {
+        long fingerprint = cart.getNormalized().getFingerprint();
+        TenantPartition.EvaluationKey key = new TenantPartition.EvaluationKey(cart.getNormalized(),
+                cart.getCustomer() != null ? new HashMap<>(cart.getCustomer()) : Map.of());
+
+        List<CouponEvaluation> evaluations = partition.cachedEvaluations(key);
+        if (evaluations == null) {
+            long version = partition.version();
+            evaluations = new ArrayList<>();
+
+            for (Coupon coupon : partition.catalog().eligibleCoupons(cart.getCustomer())) {
+                // Find the matching strategy
+                CouponStrategy strategy = strategies.stream()
+                        .filter(s -> s.supports(coupon.getType()))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("Unknown coupon type"));
+
+                if (strategy.isApplicable(cart, coupon.getDetails())) {
+                    BigDecimal discount = strategy.calculateDiscount(cart, coupon.getDetails());
+                    evaluations.add(new CouponEvaluation(coupon, discount));
+                }
+            }
+
+            partition.cacheEvaluations(key, version, evaluations);
+        }
+
+        for (CouponEvaluation evaluation : evaluations) {
+            auditPublisher.publish(tenantId, "evaluate", evaluation.coupon().getId(), fingerprint, evaluation.discount());
+        }
+        return evaluations;
+    }
+
+    /**
+     * The in-memory catalogs must only ever reflect committed coupons, so writes reach them once the
+     * transaction commits; a rollback leaves them untouched.
+     */
+    private void afterCommit(Runnable catalogUpdate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            catalogUpdate.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                catalogUpdate.run();
+            }
+        });
+    }
 
-        return Map.of("applicable_coupons", applicableList);
+    private Map<String, Object> toResponse(CouponEvaluation evaluation) {
+        return Map.of(
+                "coupon_id", evaluation.coupon().getId(),
+                "type", evaluation.coupon().getType(),
+                "discount", evaluation.discount()
+        );
     }
 }
\ No newline at end of file
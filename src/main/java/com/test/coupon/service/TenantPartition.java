@@ -0,0 +1,211 @@
+package com.test.coupon.service;
+
+import com.test.coupon.catalog.CouponCatalog;
+import com.test.coupon.dto.NormalizedCart;
+import com.test.coupon.entity.Coupon;
+import com.test.coupon.repository.CouponRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything the service keeps in memory for one tenant: its coupon catalog, an LRU cache of
+ * cart evaluations bounded by the tenant's own entry budget, and its latency metrics.
+ * Nothing is shared between partitions, so one tenant's traffic can never evict another's entries.
+ * The budget counts cache entries only; the catalog always holds all of the tenant's coupons.
+ */
+class TenantPartition {
+
+    // Upper bounds of the latency histogram buckets in milliseconds
+    private static final long[] LATENCY_LIMITS_MS = {1, 5, 10, 50, 100, 500};
+
+    // Shared by every tenant without coupons: always empty, never caches, never measured
+    static final TenantPartition EMPTY = new TenantPartition();
+
+    private final String tenantId;
+    private final CouponRepository couponRepository;
+    private final int cacheEntries;
+    private final boolean measured;
+
+    // Loaded lazily from the repository, then kept in sync by coupon writes
+    private final CouponCatalog catalog = new CouponCatalog();
+    private volatile boolean catalogLoaded;
+
+    // Guarded by this; version is bumped on every catalog write to invalidate the cache
+    private final Map<EvaluationKey, List<CouponEvaluation>> evaluations;
+    private long version;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_LIMITS_MS.length + 1);
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+
+    TenantPartition(String tenantId, CouponRepository couponRepository, int cacheEntries) {
+        this.tenantId = tenantId;
+        this.couponRepository = couponRepository;
+        this.cacheEntries = cacheEntries;
+        this.measured = true;
+        this.evaluations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EvaluationKey, List<CouponEvaluation>> eldest) {
+                if (size() <= TenantPartition.this.cacheEntries)
+                    return false;
+
+                cacheEvictions.increment();
+                return true;
+            }
+        };
+    }
+
+    private TenantPartition() {
+        this.tenantId = null;
+        this.couponRepository = null;
+        this.cacheEntries = 0;
+        this.measured = false;
+        this.evaluations = Map.of();
+        this.catalogLoaded = true;
+    }
+
+
+    CouponCatalog catalog() {
+        if (!catalogLoaded) {
+            synchronized (catalog) {
+                if (!catalogLoaded) {
+                    couponRepository.findByTenantId(tenantId).forEach(catalog::put);
+                    catalogLoaded = true;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    void put(Coupon coupon) {
+        requireWritable();
+        catalog().put(coupon);
+        invalidate();
+    }
+
+    void remove(Long id) {
+        requireWritable();
+        catalog().remove(id);
+        invalidate();
+    }
+
+    long version() {
+        if (!measured)
+            return 0;
+
+        synchronized (this) {
+            return version;
+        }
+    }
+
+    List<CouponEvaluation> cachedEvaluations(EvaluationKey key) {
+        if (!measured)
+            return null;
+
+        synchronized (this) {
+            List<CouponEvaluation> cached = evaluations.get(key);
+            if (cached != null) {
+                cacheHits.increment();
+            } else {
+                cacheMisses.increment();
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Caches the result unless the catalog changed since the caller read the version.
+     */
+    void cacheEvaluations(EvaluationKey key, long readVersion, List<CouponEvaluation> result) {
+        if (!measured || cacheEntries == 0)
+            return;
+
+        synchronized (this) {
+            if (readVersion == version)
+                evaluations.put(key, List.copyOf(result));
+        }
+    }
+
+    void recordLatency(long nanos) {
+        if (!measured)
+            return;
+
+        requests.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < LATENCY_LIMITS_MS.length && millis >= LATENCY_LIMITS_MS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+    }
+
+    Map<String, Object> stats() {
+        long count = requests.sum();
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_LIMITS_MS.length; i++) {
+            latency.put("<" + LATENCY_LIMITS_MS[i] + "ms", latencyBuckets.get(i));
+        }
+        latency.put(">=" + LATENCY_LIMITS_MS[LATENCY_LIMITS_MS.length - 1] + "ms", latencyBuckets.get(LATENCY_LIMITS_MS.length));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tenant_id", tenantId);
+        stats.put("coupons", catalog().size());
+        stats.put("requests", count);
+        stats.put("avg_latency_us", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count));
+        stats.put("max_latency_us", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+        stats.put("latency_histogram", latency);
+        synchronized (this) {
+            stats.put("cache_entries", evaluations.size());
+        }
+        stats.put("cache_budget", cacheEntries);
+        stats.put("cache_hits", cacheHits.sum());
+        stats.put("cache_misses", cacheMisses.sum());
+        stats.put("cache_evictions", cacheEvictions.sum());
+        return stats;
+    }
+
+
+    private void requireWritable() {
+        if (!measured)
+            throw new UnsupportedOperationException("The shared empty partition is immutable");
+    }
+
+    private synchronized void invalidate() {
+        version++;
+        evaluations.clear();
+    }
+
+    /**
+     * Evaluations depend only on the cart lines and the customer attributes.
+     * The fingerprint is just the hash; equality compares the lines themselves, so colliding carts never share an entry.
+     */
+    record EvaluationKey(NormalizedCart cart, Map<String, String> customer) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EvaluationKey other
+                    && cart.sameLines(other.cart)
+                    && customer.equals(other.customer);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(cart.getFingerprint()) + customer.hashCode();
+        }
+    }
+
+}
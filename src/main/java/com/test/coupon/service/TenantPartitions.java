@@ -0,0 +1,102 @@
+package com.test.coupon.service;
+
+import com.test.coupon.entity.Coupon;
+import com.test.coupon.repository.CouponRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One TenantPartition per tenant that owns coupons. The owning tenants are read from the database once;
+ * after that every coupon write goes through put/remove, so a tenant without a partition has no coupons
+ * and shares TenantPartition.EMPTY without touching the database. A partition is dropped again once its
+ * last coupon is deleted. Database reads never happen inside a map operation, so one tenant's query
+ * can't block another tenant's lookup.
+ */
+@Component
+class TenantPartitions {
+
+    private final CouponRepository couponRepository;
+    private final TenantProperties properties;
+    private final ConcurrentMap<String, TenantPartition> partitions = new ConcurrentHashMap<>();
+    private volatile boolean tenantsLoaded;
+
+    TenantPartitions(CouponRepository couponRepository, TenantProperties properties) {
+        this.couponRepository = couponRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * The tenant's partition, or the shared empty one if the tenant owns no coupons.
+     */
+    TenantPartition get(String tenantId) {
+        loadTenants();
+        return partitions.getOrDefault(tenantId, TenantPartition.EMPTY);
+    }
+
+    /**
+     * Read-only; never registers a partition.
+     */
+    Map<String, Object> stats(String tenantId) {
+        TenantPartition partition = get(tenantId);
+        Map<String, Object> stats = partition.stats();
+        stats.put("tenant_id", tenantId);
+        return stats;
+    }
+
+    void put(String tenantId, Coupon coupon) {
+        loadTenants();
+
+        while (true) {
+            TenantPartition partition = partitions.get(tenantId);
+            if (partition == null) {
+                TenantPartition created = create(tenantId);
+                created.catalog();
+                TenantPartition existing = partitions.putIfAbsent(tenantId, created);
+                partition = existing != null ? existing : created;
+            }
+
+            partition.put(coupon);
+
+            // Retry if remove() dropped this partition as empty before the coupon landed in it
+            if (partitions.get(tenantId) == partition)
+                return;
+        }
+    }
+
+    void remove(String tenantId, Long couponId) {
+        TenantPartition partition = partitions.get(tenantId);
+        if (partition == null)
+            return;
+
+        partition.remove(couponId);
+        partitions.computeIfPresent(tenantId,
+                (id, current) -> current == partition && partition.catalog().size() == 0 ? null : current);
+    }
+
+    int size() {
+        return partitions.size();
+    }
+
+
+    private void loadTenants() {
+        if (tenantsLoaded)
+            return;
+
+        synchronized (this) {
+            if (!tenantsLoaded) {
+                for (String tenantId : couponRepository.findTenantIds()) {
+                    partitions.putIfAbsent(tenantId, create(tenantId));
+                }
+                tenantsLoaded = true;
+            }
+        }
+    }
+
+    private TenantPartition create(String tenantId) {
+        return new TenantPartition(tenantId, couponRepository, properties.cacheEntriesFor(tenantId));
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.test.coupon.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "coupon.tenant")
+public class TenantProperties {
+
+    // Evaluation cache entries each tenant may hold
+    private int defaultCacheEntries = 1000;
+
+    // Per-tenant overrides, e.g. coupon.tenant.cache-entries.big-merchant=20000
+    private Map<String, Integer> cacheEntries = new HashMap<>();
+
+    public int cacheEntriesFor(String tenantId) {
+        return cacheEntries.getOrDefault(tenantId, defaultCacheEntries);
+    }
+
+}
@@ -0,0 +1,372 @@
+package com.test.coupon.simulation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.test.coupon.catalog.CouponCatalog;
+import com.test.coupon.dto.Cart;
+import com.test.coupon.entity.Coupon;
+import com.test.coupon.exception.CouponException;
+import com.test.coupon.exception.SimulationBusyException;
+import com.test.coupon.exception.UploadTooLargeException;
+import com.test.coupon.service.CartNormalizer;
+import com.test.coupon.util.CouponStrategy;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dry-runs a proposed coupon catalog against recorded carts without persisting anything.
+ * Carts are read line by line from NDJSON and evaluated in batches on a shared, bounded pool;
+ * only a bounded number of batches is in flight and each line is capped at coupon.simulate.max-line-bytes,
+ * so memory does not grow with the file.
+ * One simulation runs at a time. The cost of a cart is the best single discount it qualifies for,
+ * matching /apply-coupon.
+ */
+@Service
+public class CampaignSimulator {
+
+    private static final int BATCH_SIZE = 256;
+
+    // Upper bounds of the discount-per-cart histogram buckets; zero discounts get their own bucket
+    private static final BigDecimal[] BUCKET_LIMITS = {
+            BigDecimal.valueOf(1), BigDecimal.valueOf(5), BigDecimal.valueOf(10), BigDecimal.valueOf(25),
+            BigDecimal.valueOf(50), BigDecimal.valueOf(100), BigDecimal.valueOf(250), BigDecimal.valueOf(500),
+            BigDecimal.valueOf(1000)
+    };
+
+    private final List<CouponStrategy> strategies;
+    private final CartNormalizer cartNormalizer;
+    private final ObjectReader cartReader;
+    private final ObjectReader catalogReader;
+
+    private final long maxUploadBytes;
+    private final int maxLineBytes;
+    private final int parallelism;
+    private final ExecutorService pool;
+    private final Semaphore running = new Semaphore(1);
+
+    public CampaignSimulator(List<CouponStrategy> strategies, CartNormalizer cartNormalizer, ObjectMapper objectMapper,
+                             SimulationProperties properties) {
+        this.strategies = strategies;
+        this.cartNormalizer = cartNormalizer;
+        this.cartReader = objectMapper.readerFor(Cart.class);
+        this.catalogReader = objectMapper.readerFor(new TypeReference<List<Coupon>>() {});
+
+        this.maxUploadBytes = properties.getMaxUploadBytes();
+        this.maxLineBytes = properties.getMaxLineBytes();
+        this.parallelism = Math.max(1, properties.getThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "coupon-simulation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+
+    /**
+     * Simulates an uploaded NDJSON body, cut off at coupon.simulate.max-upload-bytes.
+     * A negative contentLength means the size is not known up front.
+     */
+    public Map<String, Object> simulateUpload(InputStream ndjson, long contentLength) throws CouponException {
+        if (contentLength > maxUploadBytes)
+            throw new UploadTooLargeException(maxUploadBytes);
+
+        LimitedInputStream limited = new LimitedInputStream(ndjson, maxUploadBytes);
+        try {
+            return simulate(limited);
+        } catch (CouponException e) {
+            if (limited.exceeded())
+                throw new UploadTooLargeException(maxUploadBytes);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the proposed catalog (a JSON array of coupons) from the first line, and carts from the rest.
+     */
+    public Map<String, Object> simulate(InputStream ndjson) throws CouponException {
+        LineReader reader = new LineReader(ndjson, maxLineBytes);
+
+        List<Coupon> catalog;
+        try {
+            String firstLine = reader.readLine();
+            if (firstLine == null || firstLine.isBlank())
+                throw new CouponException("The first line must be the proposed catalog as a JSON array of coupons");
+            catalog = catalogReader.readValue(firstLine);
+        } catch (LineReader.LineTooLongException e) {
+            throw new UploadTooLargeException("The proposed catalog exceeds the line limit of " + maxLineBytes + " bytes");
+        } catch (IOException e) {
+            throw new CouponException("Failed to read the proposed catalog: " + e.getMessage());
+        }
+
+        return simulate(catalog, reader);
+    }
+
+    public Map<String, Object> simulate(List<Coupon> proposedCoupons, InputStream carts) throws CouponException {
+        return simulate(proposedCoupons, new LineReader(carts, maxLineBytes));
+    }
+
+
+    private Map<String, Object> simulate(List<Coupon> proposedCoupons, LineReader carts) throws CouponException {
+        if (!running.tryAcquire())
+            throw new SimulationBusyException();
+
+        try {
+            return run(proposedCoupons, carts);
+        } finally {
+            running.release();
+        }
+    }
+
+    private Map<String, Object> run(List<Coupon> proposedCoupons, LineReader carts) throws CouponException {
+
+        // Coupons without an ID get one above the largest explicit ID so they can be reported
+        List<Coupon> coupons = new ArrayList<>(proposedCoupons);
+        CouponStrategy[] couponStrategies = new CouponStrategy[coupons.size()];
+        Map<Long, Integer> positions = new HashMap<>();
+        CouponCatalog catalog = new CouponCatalog();
+
+        long nextId = coupons.stream()
+                .map(Coupon::getId)
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0) + 1;
+
+        for (int i = 0; i < coupons.size(); i++) {
+            Coupon coupon = coupons.get(i);
+            if (coupon.getId() == null)
+                coupon.setId(nextId++);
+
+            couponStrategies[i] = strategies.stream()
+                    .filter(s -> s.supports(coupon.getType()))
+                    .findFirst()
+                    .orElseThrow(() -> new CouponException("Unknown coupon type: " + coupon.getType()));
+
+            if (positions.put(coupon.getId(), i) != null)
+                throw new CouponException("Duplicate coupon ID in proposed catalog: " + coupon.getId());
+            catalog.put(coupon);
+        }
+
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        Tally total = new Tally(coupons.size());
+
+        try (LineReader reader = carts) {
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+
+            while (true) {
+                String line;
+                try {
+                    line = reader.readLine();
+                } catch (LineReader.LineTooLongException e) {
+                    // Skipped without being buffered, counted like any other unreadable cart
+                    total.reject();
+                    continue;
+                }
+
+                if (line == null)
+                    break;
+                if (line.isBlank())
+                    continue;
+
+                batch.add(line);
+                if (batch.size() == BATCH_SIZE) {
+                    submit(pool, inFlight, batch, catalog, positions, couponStrategies, coupons, total);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty())
+                submit(pool, inFlight, batch, catalog, positions, couponStrategies, coupons, total);
+        } catch (IOException e) {
+            awaitBatches(inFlight);
+            throw new CouponException("Failed to read carts: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CouponException("Simulation interrupted");
+        }
+
+        // All permits back means every batch has been merged
+        awaitBatches(inFlight);
+
+        return total.toReport(coupons);
+    }
+
+
+    private void awaitBatches(Semaphore inFlight) throws CouponException {
+        try {
+            inFlight.acquire(parallelism * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CouponException("Simulation interrupted");
+        }
+    }
+
+    private void submit(ExecutorService pool, Semaphore inFlight, List<String> lines, CouponCatalog catalog,
+                        Map<Long, Integer> positions, CouponStrategy[] couponStrategies, List<Coupon> coupons,
+                        Tally total) throws InterruptedException {
+        inFlight.acquire();
+        pool.execute(() -> {
+            try {
+                Tally local = new Tally(coupons.size());
+                for (String line : lines) {
+                    evaluate(line, catalog, positions, couponStrategies, local);
+                }
+                total.merge(local);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void evaluate(String line, CouponCatalog catalog, Map<Long, Integer> positions,
+                          CouponStrategy[] couponStrategies, Tally tally) {
+        try {
+            Cart cart = cartNormalizer.normalize(cartReader.readValue(line));
+
+            long[] hits = new long[couponStrategies.length];
+            BigDecimal[] discounts = new BigDecimal[couponStrategies.length];
+            BigDecimal best = BigDecimal.ZERO;
+
+            for (Coupon coupon : catalog.eligibleCoupons(cart.getCustomer())) {
+                int position = positions.get(coupon.getId());
+                CouponStrategy strategy = couponStrategies[position];
+
+                if (strategy.isApplicable(cart, coupon.getDetails())) {
+                    BigDecimal discount = strategy.calculateDiscount(cart, coupon.getDetails());
+                    hits[position]++;
+                    discounts[position] = discount;
+                    best = best.max(discount);
+                }
+            }
+
+            // Only count the cart once it evaluated cleanly against every coupon
+            tally.carts++;
+            tally.add(hits, discounts, best);
+        } catch (IOException | CouponException | RuntimeException e) {
+            tally.rejected++;
+        }
+    }
+
+
+    /**
+     * Aggregates for a batch of carts; batch tallies are merged into the overall one.
+     */
+    private static class Tally {
+
+        private long carts;
+        private long rejected;
+        private long cartsWithDiscount;
+        private BigDecimal totalCost = BigDecimal.ZERO;
+        private final long[] hits;
+        private final BigDecimal[] couponDiscounts;
+        private final long[] histogram = new long[BUCKET_LIMITS.length + 2];
+
+        Tally(int couponCount) {
+            this.hits = new long[couponCount];
+            this.couponDiscounts = new BigDecimal[couponCount];
+            Arrays.fill(couponDiscounts, BigDecimal.ZERO);
+        }
+
+        void add(long[] cartHits, BigDecimal[] cartDiscounts, BigDecimal best) {
+            for (int i = 0; i < cartHits.length; i++) {
+                if (cartHits[i] > 0) {
+                    hits[i]++;
+                    couponDiscounts[i] = couponDiscounts[i].add(cartDiscounts[i]);
+                }
+            }
+
+            totalCost = totalCost.add(best);
+            if (best.signum() > 0)
+                cartsWithDiscount++;
+            histogram[bucket(best)]++;
+        }
+
+        synchronized void reject() {
+            rejected++;
+        }
+
+        synchronized void merge(Tally other) {
+            carts += other.carts;
+            rejected += other.rejected;
+            cartsWithDiscount += other.cartsWithDiscount;
+            totalCost = totalCost.add(other.totalCost);
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] += other.hits[i];
+                couponDiscounts[i] = couponDiscounts[i].add(other.couponDiscounts[i]);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        synchronized Map<String, Object> toReport(List<Coupon> coupons) {
+            List<Object> perCoupon = new ArrayList<>();
+            for (int i = 0; i < coupons.size(); i++) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("coupon_id", coupons.get(i).getId());
+                entry.put("type", coupons.get(i).getType());
+                entry.put("hits", hits[i]);
+                entry.put("hit_rate", ratio(BigDecimal.valueOf(hits[i]), 4));
+                entry.put("total_discount", couponDiscounts[i]);
+                perCoupon.add(entry);
+            }
+
+            Map<String, Object> distribution = new LinkedHashMap<>();
+            distribution.put("0", histogram[0]);
+            for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+                String lower = i == 0 ? "0" : BUCKET_LIMITS[i - 1].toPlainString();
+                distribution.put(lower + "-" + BUCKET_LIMITS[i].toPlainString(), histogram[i + 1]);
+            }
+            distribution.put(BUCKET_LIMITS[BUCKET_LIMITS.length - 1].toPlainString() + "+", histogram[histogram.length - 1]);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("carts", carts);
+            report.put("rejected_carts", rejected);
+            report.put("carts_with_discount", cartsWithDiscount);
+            report.put("total_discount_cost", totalCost);
+            report.put("average_discount_per_cart", ratio(totalCost, 2));
+            report.put("coupons", perCoupon);
+            report.put("discount_per_cart_distribution", distribution);
+            return report;
+        }
+
+        private BigDecimal ratio(BigDecimal value, int scale) {
+            if (carts == 0)
+                return BigDecimal.ZERO;
+            return value.divide(BigDecimal.valueOf(carts), scale, RoundingMode.HALF_UP);
+        }
+
+        private static int bucket(BigDecimal discount) {
+            if (discount.signum() <= 0)
+                return 0;
+
+            for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+                if (discount.compareTo(BUCKET_LIMITS[i]) <= 0)
+                    return i + 1;
+            }
+            return BUCKET_LIMITS.length + 1;
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.test.coupon.simulation;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails the read once more than the allowed number of bytes has been consumed,
+ * so an oversized upload is cut off while streaming instead of being buffered first.
+ */
+class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long consumed;
+    private boolean exceeded;
+
+    LimitedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0)
+            count(1);
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0)
+            count(read);
+        return read;
+    }
+
+    boolean exceeded() {
+        return exceeded;
+    }
+
+    private void count(long bytes) throws IOException {
+        consumed += bytes;
+        if (consumed > limit) {
+            exceeded = true;
+            throw new IOException("Upload exceeds the limit of " + limit + " bytes");
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.test.coupon.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads newline-delimited UTF-8 lines while holding at most maxLineBytes of a line in memory.
+ * A longer line is skipped up to its newline and reported with LineTooLongException, so reading can go on.
+ */
+class LineReader implements Closeable {
+
+    private final InputStream in;
+    private final int maxLineBytes;
+
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    private byte[] line;
+
+    LineReader(InputStream in, int maxLineBytes) {
+        this.in = in;
+        this.maxLineBytes = Math.max(1, maxLineBytes);
+        this.line = new byte[Math.min(256, this.maxLineBytes)];
+    }
+
+    /**
+     * Returns the next line without its terminator, or null at the end of the stream.
+     */
+    String readLine() throws IOException {
+        int length = 0;
+        boolean oversized = false;
+        boolean any = false;
+
+        while (true) {
+            if (position == limit) {
+                limit = Math.max(0, in.read(buffer, 0, buffer.length));
+                position = 0;
+                if (limit == 0)
+                    break;
+            }
+
+            any = true;
+            byte b = buffer[position++];
+            if (b == '\n')
+                break;
+            if (oversized)
+                continue;
+
+            if (length == maxLineBytes) {
+                oversized = true;
+                continue;
+            }
+            if (length == line.length)
+                line = Arrays.copyOf(line, Math.min(line.length * 2, maxLineBytes));
+            line[length++] = b;
+        }
+
+        if (oversized)
+            throw new LineTooLongException(maxLineBytes);
+        if (!any)
+            return null;
+
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+
+    static class LineTooLongException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        LineTooLongException(int maxLineBytes) {
+            super("Line exceeds the limit of " + maxLineBytes + " bytes");
+        }
+    }
+
+}
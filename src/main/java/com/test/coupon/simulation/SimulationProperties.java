@@ -0,0 +1,21 @@
+package com.test.coupon.simulation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "coupon.simulate")
+public class SimulationProperties {
+
+    // Worker threads shared by all simulations; kept below the core count so checkout traffic keeps CPU
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    // Largest NDJSON body accepted by POST /simulate
+    private long maxUploadBytes = 1024L * 1024 * 1024;
+
+    // Longest single line (catalog or cart) held in memory; longer carts are rejected
+    private int maxLineBytes = 1024 * 1024;
+
+}
@@ -0,0 +1,51 @@
+package com.test.coupon.simulation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.coupon.entity.Coupon;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line entry point for the campaign simulator, e.g.
+ * java -jar coupon.jar --spring.main.web-application-type=none
+ *      --coupon.simulate.catalog=proposed.json --coupon.simulate.carts=carts.ndjson
+ */
+@Component
+@ConditionalOnProperty(prefix = "coupon.simulate", name = "carts")
+public class SimulationRunner implements CommandLineRunner {
+
+    private final CampaignSimulator simulator;
+    private final ObjectMapper objectMapper;
+
+    @Value("${coupon.simulate.catalog}")
+    private String catalogPath;
+
+    @Value("${coupon.simulate.carts}")
+    private String cartsPath;
+
+    public SimulationRunner(CampaignSimulator simulator, ObjectMapper objectMapper) {
+        this.simulator = simulator;
+        this.objectMapper = objectMapper;
+    }
+
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<Coupon> catalog = objectMapper.readValue(Path.of(catalogPath).toFile(), new TypeReference<List<Coupon>>() {});
+
+        try (InputStream carts = Files.newInputStream(Path.of(cartsPath))) {
+            Map<String, Object> report = simulator.simulate(catalog, carts);
+            System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        }
+    }
+
+}
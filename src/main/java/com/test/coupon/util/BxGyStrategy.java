@@ -2,6 +2,7 @@ package com.test.coupon.util;
 
 import com.test.coupon.dto.Cart;
 import com.test.coupon.dto.CartItem;
+import com.test.coupon.dto.NormalizedCart;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.util.*;
@@ -44,10 +45,7 @@ public class BxGyStrategy implements CouponStrategy {
         int totalFreeItems = repetitions * getQuantityPerRepetition;
 
         // Find eligible "Get" items currently in the cart
-        List<CartItem> eligibleGetItems = cart.getItems().stream()
-                .filter(item -> getProductIds.contains(item.getProductId()))
-                .sorted(Comparator.comparing(CartItem::getPrice)) // Optimization: Discount cheapest items first
-                .collect(Collectors.toList());
+        List<CartItem> eligibleGetItems = findItems(cart, getProductIds); // Optimization: Discount cheapest items first
 
         // Calculate discount sum
         BigDecimal totalDiscount = BigDecimal.ZERO;
@@ -86,10 +84,7 @@ public class BxGyStrategy implements CouponStrategy {
         int itemsDiscountedSoFar = 0;
 
         // Sort eligible items by price (asc) to apply discount to cheapest first
-        List<CartItem> eligibleItems = cart.getItems().stream()
-                .filter(item -> getProductIds.contains(item.getProductId()))
-                .sorted(Comparator.comparing(CartItem::getPrice))
-                .toList();
+        List<CartItem> eligibleItems = findItems(cart, getProductIds);
 
         for (CartItem item : eligibleItems) {
 
@@ -120,9 +115,9 @@ public class BxGyStrategy implements CouponStrategy {
         int limit = (int) details.getOrDefault("repition_limit", 1);
 
         // Count how many "Buy" items are in the cart
-        int buyItemsInCart = cart.getItems().stream()
-                .filter(item -> buyProductIds.contains(item.getProductId()))
-                .mapToInt(CartItem::getQuantity)
+        int buyItemsInCart = buyProductIds.stream()
+                .distinct()
+                .mapToInt(cart.getNormalized()::quantityOf)
                 .sum();
 
 
@@ -136,6 +131,21 @@ public class BxGyStrategy implements CouponStrategy {
         return Math.min(potentialSets, limit);
     }
 
+    /**
+     * Looks the products up in the normalized cart and returns their items, cheapest first.
+     */
+    private List<CartItem> findItems(Cart cart, List<Long> productIds) {
+        NormalizedCart normalized = cart.getNormalized();
+
+        return productIds.stream()
+                .distinct()
+                .mapToInt(normalized::indexOf)
+                .filter(index -> index >= 0)
+                .mapToObj(index -> cart.getItems().get(index))
+                .sorted(Comparator.comparing(CartItem::getPrice))
+                .collect(Collectors.toList());
+    }
+
     private void updateCartTotals(Cart cart) {
 
         BigDecimal rawTotal = BigDecimal.ZERO; // Tracks pre-discount total
@@ -75,10 +75,8 @@ public class CartWiseStrategy implements CouponStrategy {
 
 
     private BigDecimal calculateCartTotal(Cart cart) {
-        // Sum of (Price * Quantity) for all items
-        return cart.getItems().stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Sum of (Price * Quantity) for all items, computed once by CartNormalizer
+        return cart.getNormalized().getTotal();
     }
 
     /**
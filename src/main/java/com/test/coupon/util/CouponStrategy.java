@@ -5,6 +5,10 @@ import com.test.coupon.dto.Cart;
 import java.math.BigDecimal;
 import java.util.Map;
 
+/**
+ * Carts reaching a strategy have been through CartNormalizer: items are valid, unique per product,
+ * sorted by product ID, and cart.getNormalized() is set.
+ */
 public interface CouponStrategy {
     boolean supports(String type); // e.g., returns true for "cart-wise"
     boolean isApplicable(Cart cart, Map<String, Object> details);
@@ -6,7 +6,6 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Map;
-import java.util.Optional;
 
 @Component
 public class ProductWiseStrategy implements CouponStrategy {
@@ -26,8 +25,7 @@ public class ProductWiseStrategy implements CouponStrategy {
         Long targetProductId = getLongFromDetails(details, "product_id");
         
         // Condition: Product X is in the cart
-        return cart.getItems().stream()
-                .anyMatch(item -> item.getProductId().equals(targetProductId));
+        return cart.getNormalized().indexOf(targetProductId) >= 0;
     }
 
     /**
@@ -42,21 +40,13 @@ public class ProductWiseStrategy implements CouponStrategy {
         Long targetProductId = getLongFromDetails(details, "product_id");
         BigDecimal discountPercentage = getBigDecimalFromDetails(details, "discount");
 
-        // Find the item in the cart
-        Optional<CartItem> itemOpt = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(targetProductId))
-                .findFirst();
-
-        if (itemOpt.isPresent()) {
-            CartItem item = itemOpt.get();
-            BigDecimal itemTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            
-            // Calculate whatever the discount is, on the total cost of this item
-            return itemTotal.multiply(discountPercentage)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        }
+        // Find the line in the cart (duplicate lines were merged by CartNormalizer)
+        int index = cart.getNormalized().indexOf(targetProductId);
+        BigDecimal itemTotal = cart.getNormalized().lineTotalAt(index);
 
-        return BigDecimal.ZERO;
+        // Calculate whatever the discount is, on the total cost of this item
+        return itemTotal.multiply(discountPercentage)
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
     }
 
     /**
@@ -71,13 +61,9 @@ public class ProductWiseStrategy implements CouponStrategy {
             return cart;
         }
 
-        // Update the specific item's discount
-        for (CartItem item : cart.getItems()) {
-            if (item.getProductId().equals(targetProductId)) {
-                // Ensure not to overwrite existing discounts if handling stacking later
-                item.setTotalDiscount(calculatedDiscount);
-            }
-        }
+        // Update the specific item's discount; items share the normalized line order
+        CartItem item = cart.getItems().get(cart.getNormalized().indexOf(targetProductId));
+        item.setTotalDiscount(calculatedDiscount);
 
         // Recalculate Cart Totals (Final Price)
         updateCartTotals(cart);
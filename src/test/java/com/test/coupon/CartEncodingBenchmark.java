@@ -0,0 +1,105 @@
+package com.test.coupon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.coupon.controller.CouponController.CartWrapper;
+import com.test.coupon.dto.Cart;
+import com.test.coupon.dto.CartItem;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payload size and serialization cost of JSON vs CBOR for the cart request and the
+ * applicable-coupons response. Opt-in: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class CartEncodingBenchmark {
+
+	private static final Logger log = LoggerFactory.getLogger(CartEncodingBenchmark.class);
+
+	private static final int WARMUP = 50_000;
+	private static final int ITERATIONS = 200_000;
+
+	private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+	private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+	@Test
+	void cartRequest() throws Exception {
+		CartWrapper wrapper = new CartWrapper();
+		wrapper.setCart(sampleCart());
+
+		report("cart request", wrapper, CartWrapper.class);
+	}
+
+	@Test
+	void applicableCouponsResponse() throws Exception {
+		List<Object> applicable = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			applicable.add(Map.of(
+					"coupon_id", (long) i + 1,
+					"type", i % 2 == 0 ? "cart-wise" : "product-wise",
+					"discount", new BigDecimal("12.50").add(BigDecimal.valueOf(i))
+			));
+		}
+
+		report("applicable-coupons response", Map.of("applicable_coupons", applicable), Map.class);
+	}
+
+
+	private void report(String name, Object value, Class<?> type) throws Exception {
+		log.info("{}: json={} bytes, cbor={} bytes", name,
+				json.writeValueAsBytes(value).length, cbor.writeValueAsBytes(value).length);
+		log.info("{} serialize: json={} ns/op, cbor={} ns/op", name,
+				nanosPerWrite(json, value), nanosPerWrite(cbor, value));
+		log.info("{} parse: json={} ns/op, cbor={} ns/op", name,
+				nanosPerRead(json, json.writeValueAsBytes(value), type),
+				nanosPerRead(cbor, cbor.writeValueAsBytes(value), type));
+	}
+
+	private static long nanosPerWrite(ObjectMapper mapper, Object value) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+		return (System.nanoTime() - start) / ITERATIONS;
+	}
+
+	private static long nanosPerRead(ObjectMapper mapper, byte[] bytes, Class<?> type) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			mapper.readValue(bytes, type);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			mapper.readValue(bytes, type);
+		}
+		return (System.nanoTime() - start) / ITERATIONS;
+	}
+
+	private static Cart sampleCart() {
+		List<CartItem> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			CartItem item = new CartItem();
+			item.setProductId(100L + i);
+			item.setQuantity(1 + i % 3);
+			item.setPrice(new BigDecimal("24.99").add(BigDecimal.valueOf(i)));
+			items.add(item);
+		}
+
+		Cart cart = new Cart();
+		cart.setItems(items);
+		return cart;
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.test.coupon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.test.coupon.controller.CouponController.CartWrapper;
+import com.test.coupon.dto.Cart;
+import com.test.coupon.dto.CartItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks JSON/CBOR content negotiation on the cart endpoints.
+ * Size and speed comparisons live in CartEncodingBenchmark (mvn test -Pbenchmark).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CartEncodingTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private Jackson2ObjectMapperBuilder builder;
+
+	@Test
+	void jsonIsTheDefault() throws Exception {
+		ObjectMapper json = builder.build();
+
+		mockMvc.perform(post("/monkcommerce/applicable-coupons")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(json.writeValueAsBytes(wrap(sampleCart()))))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	void cborRoundTrip() throws Exception {
+		ObjectMapper cbor = builder.factory(new CBORFactory()).build();
+
+		byte[] response = mockMvc.perform(post("/monkcommerce/applicable-coupons")
+						.contentType(MediaType.APPLICATION_CBOR)
+						.accept(MediaType.APPLICATION_CBOR)
+						.content(cbor.writeValueAsBytes(wrap(sampleCart()))))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		assertThat(cbor.readTree(response).has("applicable_coupons")).isTrue();
+	}
+
+	@Test
+	void cborPayloadIsSmaller() throws Exception {
+		ObjectMapper json = builder.build();
+		ObjectMapper cbor = builder.factory(new CBORFactory()).build();
+		CartWrapper wrapper = wrap(sampleCart());
+
+		byte[] cborBytes = cbor.writeValueAsBytes(wrapper);
+
+		assertThat(cbor.readValue(cborBytes, CartWrapper.class).getCart()).isEqualTo(wrapper.getCart());
+		assertThat(cborBytes.length).isLessThan(json.writeValueAsBytes(wrapper).length);
+	}
+
+
+	private static CartWrapper wrap(Cart cart) {
+		CartWrapper wrapper = new CartWrapper();
+		wrapper.setCart(cart);
+		return wrapper;
+	}
+
+	private static Cart sampleCart() {
+		List<CartItem> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			CartItem item = new CartItem();
+			item.setProductId(100L + i);
+			item.setQuantity(1 + i % 3);
+			item.setPrice(new BigDecimal("24.99").add(BigDecimal.valueOf(i)));
+			items.add(item);
+		}
+
+		Cart cart = new Cart();
+		cart.setItems(items);
+		return cart;
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.test.coupon;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Invalid carts report why they were rejected; nothing else relies on exception messages reaching the client.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class InvalidCartResponseTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ServerProperties serverProperties;
+
+	@Test
+	void invalidCartIsABadRequestWithItsReason() throws Exception {
+		mockMvc.perform(post("/monkcommerce/applicable-coupons")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"cart\":{\"items\":[{\"product_id\":1,\"quantity\":1}]}}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.detail").value("Cart item #0 (product 1) is missing a price"));
+	}
+
+	@Test
+	void otherErrorsDoNotExposeTheirMessage() {
+		assertThat(serverProperties.getError().getIncludeMessage()).isEqualTo(ErrorProperties.IncludeAttribute.NEVER);
+	}
+
+}
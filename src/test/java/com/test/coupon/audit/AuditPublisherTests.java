@@ -0,0 +1,120 @@
+package com.test.coupon.audit;
+
+import com.test.coupon.entity.AuditEvent;
+import com.test.coupon.repository.AuditEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditPublisherTests {
+
+	@Test
+	void dropPolicyDiscardsEventsWhileBufferIsFull() throws Exception {
+		CountDownLatch writerBlocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AuditPublisher publisher = new AuditPublisher(properties(AuditProperties.OverflowPolicy.DROP),
+				blockingRepository(writerBlocked, release));
+		publisher.start();
+
+		// The first event parks the writer inside saveAll, so nothing else is drained
+		publisher.publish("t", "apply", 1L, 1L, BigDecimal.ONE);
+		assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+		for (int i = 0; i < 7; i++) {
+			publisher.publish("t", "apply", 1L, 1L, BigDecimal.ONE);
+		}
+		assertThat(stat(publisher, "pending")).isEqualTo(4);
+		assertThat(stat(publisher, "dropped")).isEqualTo(3L);
+
+		release.countDown();
+		publisher.stop();
+
+		Map<String, Object> stats = publisher.getStats();
+		assertThat(stats.get("published")).isEqualTo(5L);
+		assertThat(stats.get("dropped")).isEqualTo(3L);
+		assertThat(stats.get("written")).isEqualTo(5L);
+		assertThat(stats.get("pending")).isEqualTo(0);
+	}
+
+	@Test
+	void blockPolicyDropsAfterTimeout() throws Exception {
+		CountDownLatch writerBlocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AuditPublisher publisher = new AuditPublisher(properties(AuditProperties.OverflowPolicy.BLOCK),
+				blockingRepository(writerBlocked, release));
+		publisher.start();
+
+		publisher.publish("t", "apply", 1L, 1L, BigDecimal.ONE);
+		assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+		for (int i = 0; i < 4; i++) {
+			publisher.publish("t", "apply", 1L, 1L, BigDecimal.ONE);
+		}
+
+		long start = System.nanoTime();
+		publisher.publish("t", "apply", 1L, 1L, BigDecimal.ONE);
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(20);
+		assertThat(stat(publisher, "dropped")).isEqualTo(1L);
+
+		release.countDown();
+		publisher.stop();
+		assertThat(stat(publisher, "written")).isEqualTo(5L);
+	}
+
+	@Test
+	void fileSinkFlushesEveryEventOnStop(@TempDir Path dir) throws Exception {
+		AuditProperties properties = properties(AuditProperties.OverflowPolicy.DROP);
+		properties.setSink(AuditProperties.Sink.FILE);
+		properties.setFilePath(dir.resolve("audit.log").toString());
+		AuditPublisher publisher = new AuditPublisher(properties, mock(AuditEventRepository.class));
+		publisher.start();
+
+		publisher.publish("t", "apply", 1L, 0xabcL, new BigDecimal("2.50"));
+		publisher.publish("t", "evaluate", 2L, 0xabcL, BigDecimal.ZERO);
+		publisher.publish("t", "evaluate", 3L, 0xabcL, BigDecimal.TEN);
+		publisher.stop();
+
+		List<String> lines = Files.readAllLines(dir.resolve("audit.log"));
+		assertThat(lines).hasSize(3);
+		assertThat(lines.get(0)).endsWith(",t,apply,1,abc,2.50");
+		assertThat(stat(publisher, "written")).isEqualTo(3L);
+		assertThat(stat(publisher, "failed")).isEqualTo(0L);
+	}
+
+
+	private static AuditProperties properties(AuditProperties.OverflowPolicy policy) {
+		AuditProperties properties = new AuditProperties();
+		properties.setCapacity(4);
+		properties.setBatchSize(1);
+		properties.setFlushIntervalMs(10);
+		properties.setOverflowPolicy(policy);
+		properties.setBlockTimeoutMs(20);
+		return properties;
+	}
+
+	private static AuditEventRepository blockingRepository(CountDownLatch writerBlocked, CountDownLatch release) {
+		AuditEventRepository repository = mock(AuditEventRepository.class);
+		when(repository.saveAll(any())).thenAnswer(invocation -> {
+			writerBlocked.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return invocation.<Iterable<AuditEvent>>getArgument(0);
+		});
+		return repository;
+	}
+
+	private static Object stat(AuditPublisher publisher, String name) {
+		return publisher.getStats().get(name);
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.test.coupon.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTests {
+
+	@Test
+	void capacityIsRoundedUpToPowerOfTwo() {
+		assertThat(new RingBuffer<Integer>(5).capacity()).isEqualTo(8);
+		assertThat(new RingBuffer<Integer>(8).capacity()).isEqualTo(8);
+	}
+
+	@Test
+	void offerFailsWhenFullAndSucceedsAfterPoll() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+		assertThat(buffer.size()).isEqualTo(4);
+	}
+
+	@Test
+	void multipleProducersSingleDrainerSeeEveryElementExactlyOnce() throws Exception {
+		int producers = 4;
+		int perProducer = 100_000;
+		RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			pool.execute(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		BitSet seen = new BitSet();
+		int received = 0;
+		List<Integer> batch = new ArrayList<>();
+		while (received < producers * perProducer) {
+			batch.clear();
+			buffer.drainTo(batch, 256);
+			for (Integer value : batch) {
+				assertThat(seen.get(value)).isFalse();
+				seen.set(value);
+			}
+			received += batch.size();
+		}
+
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		pool.shutdown();
+		assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+		assertThat(buffer.poll()).isNull();
+	}
+
+}
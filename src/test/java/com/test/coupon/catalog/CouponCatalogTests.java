@@ -0,0 +1,64 @@
+package com.test.coupon.catalog;
+
+import com.test.coupon.entity.Coupon;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponCatalogTests {
+
+	@Test
+	void eligibilityFiltersByCustomerAttributes() {
+		CouponCatalog catalog = new CouponCatalog();
+		catalog.put(coupon(1L, null, null, null));
+		catalog.put(coupon(2L, Map.of("segment", List.of("gold")), null, null));
+		catalog.put(coupon(3L, Map.of("segment", List.of("gold"), "channel", List.of("app")), null, null));
+
+		assertThat(ids(catalog.eligibleCoupons(Map.of("segment", "Gold", "channel", "web")))).containsExactly(1L, 2L);
+		assertThat(ids(catalog.eligibleCoupons(Map.of("segment", "gold", "channel", "app")))).containsExactly(1L, 2L, 3L);
+		assertThat(ids(catalog.eligibleCoupons(null))).containsExactly(1L);
+
+		catalog.remove(2L);
+		assertThat(ids(catalog.eligibleCoupons(Map.of("segment", "gold")))).containsExactly(1L);
+	}
+
+	@Test
+	void conflictsAreSymmetricAndMaintainedIncrementally() {
+		CouponCatalog catalog = new CouponCatalog();
+		// 1 declares a conflict with 4 before 4 exists
+		catalog.put(coupon(1L, null, null, List.of(4L)));
+		catalog.put(coupon(2L, null, List.of("clearance"), null));
+		catalog.put(coupon(3L, null, List.of("clearance"), null));
+		catalog.put(coupon(4L, null, null, null));
+
+		assertThat(catalog.selectCompatible(List.of(4L, 1L, 2L, 3L))).containsExactly(4L, 2L);
+		assertThat(catalog.selectCompatible(List.of(1L, 3L, 2L, 4L))).containsExactly(1L, 3L);
+
+		// Leaving the group removes the conflict
+		catalog.put(coupon(3L, null, null, null));
+		assertThat(catalog.selectCompatible(List.of(2L, 3L))).containsExactly(2L, 3L);
+
+		catalog.remove(4L);
+		catalog.put(coupon(4L, null, null, null));
+		assertThat(catalog.selectCompatible(List.of(4L, 1L))).containsExactly(4L);
+	}
+
+
+	private static Coupon coupon(Long id, Map<String, List<String>> eligibility, List<String> groups, List<Long> conflictsWith) {
+		Coupon coupon = new Coupon();
+		coupon.setId(id);
+		coupon.setType("cart-wise");
+		coupon.setEligibility(eligibility);
+		coupon.setExclusivityGroups(groups);
+		coupon.setConflictsWith(conflictsWith);
+		return coupon;
+	}
+
+	private static List<Long> ids(List<Coupon> coupons) {
+		return coupons.stream().map(Coupon::getId).toList();
+	}
+
+}
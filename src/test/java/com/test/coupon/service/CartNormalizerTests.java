@@ -0,0 +1,70 @@
+package com.test.coupon.service;
+
+import com.test.coupon.dto.Cart;
+import com.test.coupon.dto.CartItem;
+import com.test.coupon.exception.InvalidCartException;
+import com.test.coupon.util.ProductWiseStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartNormalizerTests {
+
+	private final CartNormalizer normalizer = new CartNormalizer();
+
+	@Test
+	void mergesDuplicateLinesAndSortsByProduct() throws Exception {
+		Cart cart = cart(item(7L, 1, "10.00"), item(3L, 2, "5"), item(7L, 2, "10"));
+
+		normalizer.normalize(cart);
+
+		assertThat(cart.getItems()).extracting(CartItem::getProductId).containsExactly(3L, 7L);
+		assertThat(cart.getNormalized().quantityOf(7L)).isEqualTo(3);
+		assertThat(cart.getNormalized().getTotal()).isEqualByComparingTo("40");
+	}
+
+	@Test
+	void productWiseDiscountCoversMergedLines() throws Exception {
+		Cart cart = normalizer.normalize(cart(item(7L, 1, "10"), item(7L, 1, "10")));
+		ProductWiseStrategy strategy = new ProductWiseStrategy();
+		Map<String, Object> details = Map.of("product_id", 7, "discount", 50);
+
+		assertThat(strategy.calculateDiscount(cart, details)).isEqualByComparingTo("10");
+		assertThat(strategy.apply(cart, details).getTotalDiscount()).isEqualByComparingTo("10");
+	}
+
+	@Test
+	void rejectsInvalidLines() {
+		assertThatThrownBy(() -> normalizer.normalize(cart(item(1L, 1, null))))
+				.isInstanceOf(InvalidCartException.class)
+				.hasMessageContaining("missing a price");
+		assertThatThrownBy(() -> normalizer.normalize(cart(item(1L, 0, "1"))))
+				.isInstanceOf(InvalidCartException.class)
+				.hasMessageContaining("positive quantity");
+		assertThatThrownBy(() -> normalizer.normalize(cart(item(1L, 1, "1"), item(1L, 1, "2"))))
+				.isInstanceOf(InvalidCartException.class)
+				.hasMessageContaining("different prices");
+	}
+
+
+	private static Cart cart(CartItem... items) {
+		Cart cart = new Cart();
+		cart.setItems(new ArrayList<>(List.of(items)));
+		return cart;
+	}
+
+	private static CartItem item(Long productId, int quantity, String price) {
+		CartItem item = new CartItem();
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		item.setPrice(price != null ? new BigDecimal(price) : null);
+		return item;
+	}
+
+}
@@ -0,0 +1,194 @@
+package com.test.coupon.service;
+
+import com.test.coupon.dto.Cart;
+import com.test.coupon.dto.CartItem;
+import com.test.coupon.dto.NormalizedCart;
+import com.test.coupon.entity.Coupon;
+import com.test.coupon.exception.CouponException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "coupon.tenant.cache-entries.tiny=1")
+class TenantPartitionTests {
+
+	@Autowired
+	private CouponService couponService;
+
+	@Autowired
+	private TenantPartitions partitions;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void tenantsCannotSeeEachOthersCoupons() throws Exception {
+		Coupon owned = couponService.createCoupon("alpha", cartWise("10"));
+		Long id = owned.getId();
+
+		assertThatThrownBy(() -> couponService.getCouponById("beta", id)).isInstanceOf(CouponException.class);
+		assertThatThrownBy(() -> couponService.updateCoupon("beta", id, cartWise("90"))).isInstanceOf(CouponException.class);
+		assertThatThrownBy(() -> couponService.deleteCoupon("beta", id)).isInstanceOf(CouponException.class);
+		assertThatThrownBy(() -> couponService.applyCoupon("beta", id, cart("200"))).isInstanceOf(CouponException.class);
+		assertThat(couponService.getAllCoupons("beta")).isEmpty();
+
+		Coupon unchanged = couponService.getCouponById("alpha", id);
+		assertThat(unchanged.getDetails()).containsEntry("discount", 10);
+		assertThat(couponService.applyCoupon("alpha", id, cart("200")).getTotalDiscount()).isEqualByComparingTo("20");
+	}
+
+	@Test
+	void createIgnoresAClientSuppliedId() throws Exception {
+		Coupon victim = couponService.createCoupon("victim", cartWise("10"));
+
+		Coupon attack = cartWise("99");
+		attack.setId(victim.getId());
+		Coupon created = couponService.createCoupon("attacker", attack);
+
+		assertThat(created.getId()).isNotEqualTo(victim.getId());
+		Coupon stillOwned = couponService.getCouponById("victim", victim.getId());
+		assertThat(stillOwned.getTenantId()).isEqualTo("victim");
+		assertThat(stillOwned.getDetails()).containsEntry("discount", 10);
+	}
+
+	@Test
+	void couponWritesInvalidateTheCache() throws Exception {
+		Coupon coupon = couponService.createCoupon("writer", cartWise("10"));
+
+		assertThat(discountOf(couponService.getApplicableCoupons("writer", cart("200")))).isEqualByComparingTo("20");
+		assertThat(discountOf(couponService.getApplicableCoupons("writer", cart("200")))).isEqualByComparingTo("20");
+		assertThat(stats("writer")).containsEntry("cache_hits", 1L);
+
+		couponService.updateCoupon("writer", coupon.getId(), cartWise("25"));
+		assertThat(discountOf(couponService.getApplicableCoupons("writer", cart("200")))).isEqualByComparingTo("50");
+
+		couponService.deleteCoupon("writer", coupon.getId());
+		assertThat(couponService.getApplicableCoupons("writer", cart("200")).get("applicable_coupons")).asList().isEmpty();
+	}
+
+	@Test
+	void rolledBackWritesNeverReachTheCatalog() throws Exception {
+		Coupon coupon = couponService.createCoupon("rollback", cartWise("10"));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				couponService.updateCoupon("rollback", coupon.getId(), cartWise("50"));
+				couponService.createCoupon("rollback", cartWise("30"));
+			} catch (CouponException e) {
+				throw new IllegalStateException(e);
+			}
+			status.setRollbackOnly();
+		});
+
+		assertThat(discountOf(couponService.getApplicableCoupons("rollback", cart("200")))).isEqualByComparingTo("20");
+		assertThat(stats("rollback")).containsEntry("coupons", 1);
+	}
+
+	@Test
+	void evictionStaysWithinOneTenant() throws Exception {
+		couponService.createCoupon("tiny", cartWise("10"));
+		couponService.createCoupon("roomy", cartWise("10"));
+
+		couponService.getApplicableCoupons("roomy", cart("200"));
+		for (String price : List.of("200", "300", "400")) {
+			couponService.getApplicableCoupons("tiny", cart(price));
+		}
+		couponService.getApplicableCoupons("roomy", cart("200"));
+
+		assertThat(stats("tiny")).containsEntry("cache_entries", 1).containsEntry("cache_evictions", 2L);
+		assertThat(stats("roomy")).containsEntry("cache_hits", 1L).containsEntry("cache_evictions", 0L);
+	}
+
+	@Test
+	void statsCountRequestsAndCacheTraffic() throws Exception {
+		Coupon coupon = couponService.createCoupon("counted", cartWise("10"));
+
+		couponService.getApplicableCoupons("counted", cart("200"));
+		couponService.getCompatibleCoupons("counted", cart("200"));
+		couponService.applyCoupon("counted", coupon.getId(), cart("200"));
+
+		Map<String, Object> stats = stats("counted");
+		assertThat(stats).containsEntry("tenant_id", "counted")
+				.containsEntry("coupons", 1)
+				.containsEntry("requests", 3L)
+				.containsEntry("cache_misses", 1L)
+				.containsEntry("cache_hits", 1L);
+		assertThat(((Map<?, ?>) stats.get("latency_histogram")).values().stream()
+				.mapToLong(count -> (Long) count).sum()).isEqualTo(3L);
+	}
+
+	@Test
+	void tenantsWithoutCouponsShareTheEmptyPartition() throws Exception {
+		int before = partitions.size();
+
+		couponService.getApplicableCoupons("nobody", cart("200"));
+
+		// Not measured, by design: nothing is kept for arbitrary tenant IDs
+		assertThat(partitions.get("nobody")).isSameAs(TenantPartition.EMPTY);
+		assertThat(stats("nobody")).containsEntry("tenant_id", "nobody")
+				.containsEntry("coupons", 0)
+				.containsEntry("requests", 0L);
+		assertThat(partitions.size()).isEqualTo(before);
+	}
+
+	@Test
+	void deletingTheLastCouponDropsThePartition() throws Exception {
+		Coupon coupon = couponService.createCoupon("leaving", cartWise("10"));
+		assertThat(partitions.get("leaving")).isNotSameAs(TenantPartition.EMPTY);
+
+		couponService.deleteCoupon("leaving", coupon.getId());
+
+		assertThat(partitions.get("leaving")).isSameAs(TenantPartition.EMPTY);
+	}
+
+	@Test
+	void cacheKeysCompareLinesNotJustTheFingerprint() {
+		NormalizedCart cheap = new NormalizedCart(new long[]{1}, new int[]{1}, new BigDecimal[]{new BigDecimal("10")}, 42);
+		NormalizedCart dear = new NormalizedCart(new long[]{1}, new int[]{1}, new BigDecimal[]{new BigDecimal("99")}, 42);
+		NormalizedCart sameValue = new NormalizedCart(new long[]{1}, new int[]{1}, new BigDecimal[]{new BigDecimal("10.00")}, 42);
+
+		assertThat(new TenantPartition.EvaluationKey(cheap, Map.of()))
+				.isNotEqualTo(new TenantPartition.EvaluationKey(dear, Map.of()))
+				.isEqualTo(new TenantPartition.EvaluationKey(sameValue, Map.of()));
+	}
+
+
+	private Map<String, Object> stats(String tenantId) {
+		return couponService.getTenantStats(tenantId);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BigDecimal discountOf(Map<String, Object> applicable) {
+		List<Map<String, Object>> coupons = (List<Map<String, Object>>) applicable.get("applicable_coupons");
+		assertThat(coupons).hasSize(1);
+		return (BigDecimal) coupons.get(0).get("discount");
+	}
+
+	private static Coupon cartWise(String discount) {
+		Coupon coupon = new Coupon();
+		coupon.setType("cart-wise");
+		coupon.setDetails(Map.of("threshold", 100, "discount", Integer.parseInt(discount)));
+		return coupon;
+	}
+
+	private static Cart cart(String price) {
+		CartItem item = new CartItem();
+		item.setProductId(1L);
+		item.setQuantity(1);
+		item.setPrice(new BigDecimal(price));
+
+		Cart cart = new Cart();
+		cart.setItems(new ArrayList<>(List.of(item)));
+		return cart;
+	}
+
+}
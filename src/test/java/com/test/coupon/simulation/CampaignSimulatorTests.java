@@ -0,0 +1,160 @@
+package com.test.coupon.simulation;
+
+import com.test.coupon.entity.Coupon;
+import com.test.coupon.exception.SimulationBusyException;
+import com.test.coupon.exception.UploadTooLargeException;
+import com.test.coupon.service.CartNormalizer;
+import com.test.coupon.util.BxGyStrategy;
+import com.test.coupon.util.CartWiseStrategy;
+import com.test.coupon.util.ProductWiseStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CampaignSimulatorTests {
+
+	private final SimulationProperties properties = new SimulationProperties();
+	private CampaignSimulator simulator;
+
+	@AfterEach
+	void shutdown() {
+		if (simulator != null)
+			simulator.shutdown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void reportsTotalsHitRatesAndDistribution() throws Exception {
+		Map<String, Object> report;
+		try (InputStream in = getClass().getResourceAsStream("/simulation/carts.ndjson")) {
+			report = simulator().simulate(in);
+		}
+
+		assertThat(report.get("carts")).isEqualTo(4L);
+		assertThat(report.get("rejected_carts")).isEqualTo(2L);
+		assertThat(report.get("carts_with_discount")).isEqualTo(3L);
+		assertThat((BigDecimal) report.get("total_discount_cost")).isEqualByComparingTo("92.00");
+		assertThat((BigDecimal) report.get("average_discount_per_cart")).isEqualByComparingTo("23.00");
+
+		List<Map<String, Object>> coupons = (List<Map<String, Object>>) report.get("coupons");
+		assertThat(coupons).extracting(c -> c.get("coupon_id")).containsExactly(10L, 11L);
+		assertThat(coupons).extracting(c -> c.get("hits")).containsExactly(2L, 2L);
+		assertThat(coupons).extracting(c -> c.get("hit_rate").toString()).containsExactly("0.5000", "0.5000");
+		assertThat((BigDecimal) coupons.get(0).get("total_discount")).isEqualByComparingTo("42.00");
+		assertThat((BigDecimal) coupons.get(1).get("total_discount")).isEqualByComparingTo("80.00");
+
+		Map<String, Object> distribution = (Map<String, Object>) report.get("discount_per_cart_distribution");
+		assertThat(distribution).containsEntry("0", 1L).containsEntry("10-25", 2L).containsEntry("50-100", 1L);
+		assertThat(distribution.values().stream().mapToLong(v -> (Long) v).sum()).isEqualTo(4L);
+	}
+
+	@Test
+	void missingIdsAreNumberedAboveExplicitOnes() throws Exception {
+		Coupon unnumbered = coupon(null);
+		Coupon explicit = coupon(1L);
+
+		simulator().simulate(List.of(unnumbered, explicit), ndjson(""));
+
+		assertThat(unnumbered.getId()).isEqualTo(2L);
+		assertThat(explicit.getId()).isEqualTo(1L);
+	}
+
+	@Test
+	void rejectsUploadsOverTheLimit() {
+		properties.setMaxUploadBytes(64);
+		String body = "[]\n" + "{\"items\":[{\"product_id\":1,\"quantity\":1,\"price\":1}]}\n".repeat(10);
+
+		assertThatThrownBy(() -> simulator().simulateUpload(ndjson(body), -1))
+				.isInstanceOf(UploadTooLargeException.class);
+		assertThatThrownBy(() -> simulator().simulateUpload(ndjson("[]"), 65))
+				.isInstanceOf(UploadTooLargeException.class);
+	}
+
+
+	@Test
+	void oversizedLinesAreBoundedAndRejected() throws Exception {
+		properties.setMaxLineBytes(80);
+		String cart = "{\"items\":[{\"product_id\":1,\"quantity\":1,\"price\":1}]}\n";
+		String body = "[]\n" + cart + "x".repeat(10_000) + "\n" + cart;
+
+		Map<String, Object> report = simulator().simulate(ndjson(body));
+
+		assertThat(report.get("carts")).isEqualTo(2L);
+		assertThat(report.get("rejected_carts")).isEqualTo(1L);
+		assertThatThrownBy(() -> simulator().simulate(ndjson("[" + " ".repeat(100) + "]\n")))
+				.isInstanceOf(UploadTooLargeException.class);
+	}
+
+	@Test
+	void overlappingSimulationsAreRejected() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InputStream blocking = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return -1;
+			}
+		};
+
+		CampaignSimulator shared = simulator();
+		CompletableFuture<Map<String, Object>> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return shared.simulate(List.of(), blocking);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThatThrownBy(() -> shared.simulate(ndjson("[]"))).isInstanceOf(SimulationBusyException.class);
+
+		release.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS).get("carts")).isEqualTo(0L);
+	}
+
+
+	private CampaignSimulator simulator() {
+		if (simulator == null) {
+			properties.setThreads(2);
+			simulator = new CampaignSimulator(
+					List.of(new CartWiseStrategy(), new ProductWiseStrategy(), new BxGyStrategy()),
+					new CartNormalizer(),
+					Jackson2ObjectMapperBuilder.json().build(),
+					properties);
+		}
+		return simulator;
+	}
+
+	private static InputStream ndjson(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Coupon coupon(Long id) {
+		Coupon coupon = new Coupon();
+		coupon.setId(id);
+		coupon.setType("cart-wise");
+		coupon.setDetails(Map.of("threshold", 100, "discount", 10));
+		return coupon;
+	}
+
+}